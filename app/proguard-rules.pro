@@ -9,6 +9,9 @@
 
 # Add any project specific keep options here:
 
+# The classes emitted by the generateUnitConverters task are only created through reflection
+-keep class com.rcarvalho.unitconverter.Generated*Unit { <init>(...); }
+
 # If your project uses WebView with JS, uncomment the following
 # and specify the fully qualified class name to the JavaScript interface
 # class:
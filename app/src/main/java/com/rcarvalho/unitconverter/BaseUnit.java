@@ -2,18 +2,18 @@ package com.rcarvalho.unitconverter;
 
 import android.util.Log;
 
-import java.util.ArrayList;
-
 /**
  Created by Roger Carvalho for RDC Media Ltd. on 13/07/15. This code can freely be used, amended,
  distributed and sold for any purpose desired, but should credit RDC Media Ltd. within the notes.
  */
 public class BaseUnit {
 
-    private double value;
+    //Protected so generated subclasses can hold their value here as well
+    protected double value;
     private double baseNumber;
-    private final ArrayList<String> unitNames = new ArrayList<>();
-    private final ArrayList<Double> unitValues = new ArrayList<>();
+    private final UnitCatalog catalog;
+    private final int firstUnit;
+    private final int unitCount;
 
     public BaseUnit(String[] unitNames, double[] unitValues, double value, double baseNumber)
     /*
@@ -23,9 +23,35 @@ public class BaseUnit {
     provided with a unitValue (multiplier) of 1 within the arrays to ensure proper calculation. You
     should also provide a base number (which will be added before and subtracted after any
     multiplier calculation (to support i.e. Celcius to Fahrenheit conversion). If there is no base
-    number, simply provide 0.
+    number, simply provide 0. The units are stored in a catalog of their own, use the constructor
+    taking a UnitCatalog to share one catalog between several profiles.
     */
     {
+        this(new UnitCatalog(unitNames.length), unitNames, unitValues, value, baseNumber);
+    }
+
+    private BaseUnit(UnitCatalog catalog, String[] unitNames, double[] unitValues, double value,
+                     double baseNumber)
+    //Add the units to the given catalog first, then view the range they were stored in
+    {
+        this(catalog, catalog.addUnits(unitNames, unitValues), unitNames.length, value,
+                baseNumber);
+    }
+
+    public BaseUnit(UnitCatalog catalog, int firstUnit, int unitCount, double value,
+                    double baseNumber)
+    /*
+    Constructor: instantiate a base unit from units already stored in a catalog. firstUnit is the
+    catalog index of the first unit of the profile (as returned by UnitCatalog.addUnits) and
+    unitCount the number of units it contains. Unit indexes passed to this object are relative to
+    firstUnit. The value and base number work as described above.
+    */
+    {
+        if (firstUnit < 0 || unitCount < 0 || firstUnit + unitCount > catalog.size())
+        {
+            throw new IndexOutOfBoundsException("The units requested are not in the catalog");
+        }
+
         /*
         Set the value contained in this object, that is the value which belongs to the unit
         of measurement with a multiplier of 1.
@@ -33,20 +59,10 @@ public class BaseUnit {
         this.value = value;
         this.baseNumber = baseNumber;
 
-
-        for (String unitName : unitNames)
-        {
-            //load up the object unit names reference array
-            this.unitNames.add(unitName);
-
-        }
-
-        for (double unitValue : unitValues)
-        {
-            //load up the object unit multiplier reference array
-            this.unitValues.add(unitValue);
-        }
-
+        //Keep a reference to the range of the catalog holding this object's units
+        this.catalog = catalog;
+        this.firstUnit = firstUnit;
+        this.unitCount = unitCount;
     }
 
     public double convert(int unitIndex)
@@ -57,7 +73,7 @@ public class BaseUnit {
         that index
         */
 
-        if (this.unitValues.size() < unitIndex || unitIndex < 0)
+        if (unitIndex >= this.unitCount || unitIndex < 0)
         {
             //the unitIndex is out of bounds for the available units. Return 0
             return 0;
@@ -69,7 +85,8 @@ public class BaseUnit {
             then multiply that with the multiplier requested. Lastly, subtract the base number
             from the result.
              */
-            return ((value + baseNumber) * unitValues.get(unitIndex)) - baseNumber;
+            return ((value + baseNumber) * catalog.getUnitValue(firstUnit + unitIndex))
+                    - baseNumber;
         }
     }
 
@@ -79,9 +96,9 @@ public class BaseUnit {
     search what int to provide to convert to a desired unit
     */
     {
-        for (int i = 0; i < this.unitNames.size(); i++)
+        for (int i = 0; i < this.unitCount; i++)
         {
-            if (unitNames.get(i).equals(requestedUnit))
+            if (catalog.getUnitName(firstUnit + i).equals(requestedUnit))
             {
                 return i;
             }
@@ -95,13 +112,27 @@ public class BaseUnit {
     public String[] getUnitNames()
     //This method returns a string array containing all unit names supported in this instance
     {
-        return unitNames.toArray(new String[unitNames.size()]);
+        String[] unitNames = new String[unitCount];
+        for (int i = 0; i < unitCount; i++)
+        {
+            unitNames[i] = catalog.getUnitName(firstUnit + i);
+        }
+        return unitNames;
     }
 
     public void setValue(double value, int unitIndex)
     //This method sets the value of this object based on a given unit
     {
-        this.value = ((value + baseNumber) * 1/this.unitValues.get(unitIndex)) - baseNumber;
+        /*
+        The units of other profiles may follow this one in the catalog, so an index out of bounds
+        has to be rejected here rather than by the array
+        */
+        if (unitIndex >= this.unitCount || unitIndex < 0)
+        {
+            throw new IndexOutOfBoundsException("Invalid unit index " + unitIndex);
+        }
+        this.value = ((value + baseNumber) * 1/catalog.getUnitValue(firstUnit + unitIndex))
+                - baseNumber;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.rcarvalho.unitconverter;
+
+import java.util.Arrays;
+
+/**
+ This code can freely be used, amended, distributed and sold for any purpose desired, but should
+ credit RDC Media Ltd. within the notes.
+
+ A catalog holds the names and multipliers of the units of any number of profiles in 2 contiguous
+ arrays. Each profile added takes up a range of consecutive indexes, which BaseUnit objects use
+ to look up their units without keeping a copy of their own.
+ */
+public class UnitCatalog {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private String[] unitNames;
+    private double[] unitValues;
+    private int size;
+
+    public UnitCatalog()
+    //Constructor: creates an empty catalog with room for a few profiles before it needs to grow
+    {
+        this(INITIAL_CAPACITY);
+    }
+
+    public UnitCatalog(int capacity)
+    /*
+    Constructor: creates an empty catalog with room for a given number of units. Use this when the
+    number of units is known up front, i.e. for a catalog holding a single profile.
+    */
+    {
+        this.unitNames = new String[capacity];
+        this.unitValues = new double[capacity];
+    }
+
+    public int addUnits(String[] unitNames, double[] unitValues)
+    /*
+    This method appends the units of a profile to the catalog and returns the index of its first
+    unit, the other units follow in the order provided. Names are interned, so a unit name used by
+    several profiles is only held in memory once.
+    */
+    {
+        if (unitNames.length != unitValues.length)
+        {
+            throw new IllegalArgumentException("The number of unit names and unit values don't "
+                    + "match");
+        }
+
+        int firstUnit = size;
+        ensureCapacity(size + unitNames.length);
+
+        for (int i = 0; i < unitNames.length; i++)
+        {
+            this.unitNames[size] = unitNames[i].intern();
+            this.unitValues[size] = unitValues[i];
+            size++;
+        }
+        return firstUnit;
+    }
+
+    public String getUnitName(int index)
+    //This method returns the name of the unit stored at a given index
+    {
+        return unitNames[index];
+    }
+
+    public double getUnitValue(int index)
+    //This method returns the multiplier of the unit stored at a given index
+    {
+        return unitValues[index];
+    }
+
+    public int size()
+    //This method returns the number of units held by the catalog, across all profiles
+    {
+        return size;
+    }
+
+    private void ensureCapacity(int capacity)
+    //Grow both arrays (at least doubling them) whenever the catalog runs out of space
+    {
+        if (capacity > unitValues.length)
+        {
+            int newCapacity = Math.max(capacity, unitValues.length * 2);
+            unitNames = Arrays.copyOf(unitNames, newCapacity);
+            unitValues = Arrays.copyOf(unitValues, newCapacity);
+        }
+    }
+}
@@ -16,6 +16,7 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.Spinner;
 import android.widget.TextView;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 
 /**
@@ -31,13 +32,14 @@ public class UnitConverterFragment extends Fragment {
     String decimalPrecision = "%.4f";
 
     /*
-    These variables hold all possible profiles and measurable units. The array lists hold
-    all the units that belong to a given profile and their respective multipliers to convert them
-    amongst each other. The BaseUnit object holds the currently selected profile's data
+    These variables hold all possible profiles and measurable units. The catalog holds the units of
+    every profile loaded so far and their respective multipliers to convert them amongst each
+    other, the BaseUnit objects only refer to a profile's range within it. Each profile is loaded
+    once and kept in profileUnits, the activeUnits object is the currently selected profile
     */
     private final ArrayList<String> profiles = new ArrayList<>();
-    private final ArrayList<String> units = new ArrayList<>();
-    private final ArrayList<Double> unitValues = new ArrayList<>();
+    private final UnitCatalog catalog = new UnitCatalog();
+    private BaseUnit[] profileUnits;
     private BaseUnit activeUnits;
 
     /*
@@ -100,8 +102,8 @@ public class UnitConverterFragment extends Fragment {
                     +"Base");
 
             //Load up the units in the BaseUnit object to be used for future conversion
-            activeUnits = createBaseUnit(xmlUnitNamesReference, xmlUnitValuesReference,
-                    xmlUnitBaseReference);
+            activeUnits = createBaseUnit(this.profiles.get(0), xmlUnitNamesReference,
+                    xmlUnitValuesReference, xmlUnitBaseReference);
 
             /*
             Check if activeUnits was correctly created. If not, the app will have shown a dialogue
@@ -109,6 +111,7 @@ public class UnitConverterFragment extends Fragment {
             */
             if (activeUnits != null)
             {
+                profileUnits[0] = activeUnits;
 
                 //load the units into the input and output spinners
                 setupSpinner(activeUnits, baseUnit, 0);
@@ -179,11 +182,11 @@ public class UnitConverterFragment extends Fragment {
         }
     }
 
-    private BaseUnit createBaseUnit(int xmlUnitNamesReference, int xmlUnitValuesReference,
-                                    int xmlBaseUnitReference)
+    private BaseUnit createBaseUnit(String profileName, int xmlUnitNamesReference,
+                                    int xmlUnitValuesReference, int xmlBaseUnitReference)
     /*
     This method creates a new BaseUnit object based on a provided referenceIndex of strings in
-    strings.xml
+    strings.xml, adding its units to the shared catalog
     */
     {
         //Load up all the names and multipliers listed in strings.xml
@@ -230,7 +233,7 @@ public class UnitConverterFragment extends Fragment {
                     number
                     */
                     double baseNumberValue = Double.parseDouble(baseNumber[0]);
-                    return new BaseUnit(units, unitBaseValues, 0, baseNumberValue);
+                    return createUnit(profileName, units, unitBaseValues, baseNumberValue);
 
                 }
                 catch (NumberFormatException e)
@@ -251,7 +254,7 @@ public class UnitConverterFragment extends Fragment {
             else
             {
                 //Return a new base unit with 0 as base number
-                return new BaseUnit(units, unitBaseValues, 0, 0);
+                return createUnit(profileName, units, unitBaseValues, 0);
             }
         }
         else if (units.length < 2)
@@ -270,6 +273,47 @@ public class UnitConverterFragment extends Fragment {
         }
     }
 
+    private BaseUnit createUnit(String profileName, String[] units, double[] unitValues,
+                                double baseNumber)
+    /*
+    This method adds the units of a profile to the shared catalog and returns a BaseUnit for them.
+    If the generateUnitConverters build task produced a class for this profile, that class is used
+    for the conversions, otherwise a data-driven BaseUnit is returned
+    */
+    {
+        Class<?> generatedClass;
+        try
+        {
+            generatedClass = Class.forName(BaseUnit.class.getPackage().getName() + ".Generated"
+                    + profileName + "Unit");
+        }
+        catch (ClassNotFoundException e)
+        {
+            //The app was built without generated classes, so use the data-driven BaseUnit
+            return new BaseUnit(catalog, catalog.addUnits(units, unitValues), units.length, 0,
+                    baseNumber);
+        }
+
+        try
+        {
+            return (BaseUnit) generatedClass.getConstructor(UnitCatalog.class, String[].class,
+                    double[].class, double.class).newInstance(catalog, units, unitValues,
+                    baseNumber);
+        }
+        catch (NoSuchMethodException | InstantiationException | IllegalAccessException
+                | InvocationTargetException e)
+        {
+            /*
+            The generated class exists but is broken or was generated from an older strings.xml.
+            Falling back would hide that, so exit with an error like for any other invalid profile
+            */
+            Log.e("UnitConverterFragment", "Could not create " + generatedClass.getName(), e);
+            showDialog(getResources().getString(R.string.errorMsgBoxTitle),
+                    getResources().getString(R.string.generatedUnitError), true);
+            return null;
+        }
+    }
+
     private int getStringArrayResourceID(String resourceIDString)
     //This method returns the ID of a given resource string array in strings.xml
     {
@@ -296,6 +340,9 @@ public class UnitConverterFragment extends Fragment {
         {
             this.profiles.add(profile);
         }
+
+        //No profile has been loaded yet, they are added as the user selects them
+        profileUnits = new BaseUnit[this.profiles.size()];
     }
 
     private void setupBaseUnitSpinnerListener()
@@ -361,6 +408,14 @@ public class UnitConverterFragment extends Fragment {
         profile.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                //If the profile was loaded before, reuse its units rather than reloading them
+                if (profileUnits[position] != null) {
+                    activeUnits = profileUnits[position];
+                    setupSpinner(activeUnits, baseUnit, 0);
+                    setupSpinner(activeUnits, resultUnit, 1);
+                    return;
+                }
+
                 //reload spinners
                 int xmlUnitNamesReference = getStringArrayResourceID("units" +
                         profiles.get(position));
@@ -377,14 +432,16 @@ public class UnitConverterFragment extends Fragment {
                             profiles.get(position) + "Base");
 
                     //Load up the units in the BaseUnit object to be used for future conversion
-                    activeUnits = createBaseUnit(xmlUnitNamesReference, xmlUnitValuesReference,
-                            xmlUnitBaseReference);
+                    activeUnits = createBaseUnit(profiles.get(position), xmlUnitNamesReference,
+                            xmlUnitValuesReference, xmlUnitBaseReference);
 
                      /*
                     Check if activeUnits was correctly created. If not, the app will have shown
                     a dialogue box and is waiting for the user to exit
                     */
                     if (activeUnits != null) {
+                        profileUnits[position] = activeUnits;
+
                         /*
                         Load the units into the input and output spinners and set them to the first
                         and second unit available respectively
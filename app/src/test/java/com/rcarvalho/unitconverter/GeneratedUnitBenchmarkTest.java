@@ -0,0 +1,158 @@
+package com.rcarvalho.unitconverter;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ Benchmarks the generated per-profile classes against the data-driven BaseUnit they replace. Run
+ with ./gradlew test -PgenerateUnitConverters, without that property there is nothing to compare
+ and the benchmark is skipped. Once both are inlined, the division in setValue() dominates either
+ implementation, so the test only fails when a generated class is clearly slower.
+ */
+public class GeneratedUnitBenchmarkTest {
+
+    private static final long SEED = 20150713L;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final int CONVERSIONS_PER_ROUND = 1000000;
+    private static final int CONVERSIONS_PER_UNIT_PAIR = 1000;
+
+    //Every measurement is repeated in this many JVMs, keeping the best one
+    private static final int JVMS_PER_MEASUREMENT = 3;
+
+    //How much slower than BaseUnit a generated class may measure before this counts as noise
+    private static final double NOISE_MARGIN = 1.25;
+
+    @Test
+    public void generatedUnitsAreNotSlowerThanBaseUnit() throws Exception
+    {
+        for (UnitProfiles.Profile profile : UnitProfiles.load())
+        {
+            Assume.assumeNotNull(profile.createGeneratedUnit());
+
+            double dataDriven = Double.MAX_VALUE;
+            double generated = Double.MAX_VALUE;
+            for (int i = 0; i < JVMS_PER_MEASUREMENT; i++)
+            {
+                dataDriven = Math.min(dataDriven, measureInNewJvm(profile.name, false));
+                generated = Math.min(generated, measureInNewJvm(profile.name, true));
+            }
+
+            System.out.println(String.format("%s: BaseUnit %.2f ns/op, generated %.2f ns/op "
+                    + "(%.2fx)", profile.name, dataDriven, generated, dataDriven / generated));
+            assertTrue(profile.name + " generated unit is slower than BaseUnit",
+                    generated < dataDriven * NOISE_MARGIN);
+        }
+    }
+
+    private static double measureInNewJvm(String profileName, boolean generated)
+            throws Exception
+    /*
+    Each measurement runs in a JVM of its own, so the call sites in run() only ever see one class
+    and the JIT can inline it, as it would in the app. Returns the nanoseconds per conversion
+    */
+    {
+        Process process = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"),
+                GeneratedUnitBenchmarkTest.class.getName(), profileName,
+                String.valueOf(generated)).redirectErrorStream(true).start();
+
+        StringBuilder output = new StringBuilder();
+        String lastLine = null;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                process.getInputStream()));
+        for (String line = reader.readLine(); line != null; line = reader.readLine())
+        {
+            output.append(line).append('\n');
+            lastLine = line;
+        }
+        reader.close();
+
+        if (process.waitFor() != 0 || lastLine == null)
+        {
+            fail("Benchmark of " + profileName + " failed:\n" + output);
+        }
+        return Double.parseDouble(lastLine);
+    }
+
+    public static void main(String[] args) throws Exception
+    /*
+    Entry point of the benchmark JVMs: measures the profile named in the first argument, using
+    its generated class if the second argument is true, and prints the best nanoseconds per
+    conversion on the last line
+    */
+    {
+        UnitProfiles.Profile profile = null;
+        for (UnitProfiles.Profile candidate : UnitProfiles.load())
+        {
+            if (candidate.name.equals(args[0]))
+            {
+                profile = candidate;
+            }
+        }
+        BaseUnit unit = Boolean.parseBoolean(args[1]) ? profile.createGeneratedUnit()
+                : profile.createBaseUnit();
+
+        /*
+        Prepare all inputs up front, so the timed loop only converts. Like in the app, where the
+        user picks 2 units and then converts amounts between them, each random pair of units is
+        kept for a run of conversions
+        */
+        Random random = new Random(SEED);
+        double[] amounts = new double[CONVERSIONS_PER_ROUND];
+        int[] fromUnits = new int[CONVERSIONS_PER_ROUND];
+        int[] toUnits = new int[CONVERSIONS_PER_ROUND];
+        int fromUnit = 0;
+        int toUnit = 0;
+        for (int i = 0; i < CONVERSIONS_PER_ROUND; i++)
+        {
+            if (i % CONVERSIONS_PER_UNIT_PAIR == 0)
+            {
+                fromUnit = random.nextInt(profile.unitNames.length);
+                toUnit = random.nextInt(profile.unitNames.length);
+            }
+            amounts[i] = random.nextDouble() * 1000;
+            fromUnits[i] = fromUnit;
+            toUnits[i] = toUnit;
+        }
+
+        double checksum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+        {
+            checksum += run(unit, amounts, fromUnits, toUnits);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+        {
+            long start = System.nanoTime();
+            checksum += run(unit, amounts, fromUnits, toUnits);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        //Printing the checksum keeps the JIT from dropping the conversions
+        System.out.println("checksum " + checksum);
+        System.out.println((double) best / CONVERSIONS_PER_ROUND);
+    }
+
+    private static double run(BaseUnit unit, double[] amounts, int[] fromUnits, int[] toUnits)
+    //Converts every prepared amount, returning a sum so the work isn't dropped
+    {
+        double sum = 0;
+        for (int i = 0; i < amounts.length; i++)
+        {
+            unit.setValue(amounts[i], fromUnits[i]);
+            sum += unit.convert(toUnits[i]);
+        }
+        return sum;
+    }
+}
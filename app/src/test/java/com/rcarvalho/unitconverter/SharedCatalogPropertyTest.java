@@ -0,0 +1,93 @@
+package com.rcarvalho.unitconverter;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ Runs the conversion properties against BaseUnit objects that all view one UnitCatalog, the way
+ UnitConverterFragment loads them, so a profile reading outside of its range would be caught.
+ */
+public class SharedCatalogPropertyTest extends UnitConversionPropertyTest {
+
+    private static final UnitCatalog catalog = new UnitCatalog();
+
+    //The catalog index of the first unit of each profile, by profile name
+    private static final Map<String, Integer> firstUnits = new HashMap<>();
+
+    //The generated class of each profile with its units in the same catalog, if the build made one
+    private static final Map<String, BaseUnit> generatedUnits = new HashMap<>();
+
+    @BeforeClass
+    public static void loadCatalog() throws Exception
+    /*
+    Add every profile to the catalog up front, followed by the units of its generated class, and
+    put the lot between 2 padding units, so each range sits between other units. The padding
+    multiplier is NaN, so any conversion reading it fails
+    */
+    {
+        catalog.addUnits(new String[] {"Padding"}, new double[] {Double.NaN});
+        for (UnitProfiles.Profile profile : UnitProfiles.load())
+        {
+            firstUnits.put(profile.name, catalog.addUnits(profile.unitNames,
+                    profile.unitValues));
+            generatedUnits.put(profile.name, profile.createGeneratedUnit(catalog));
+        }
+        catalog.addUnits(new String[] {"Padding"}, new double[] {Double.NaN});
+    }
+
+    @Override
+    protected BaseUnit createUnit(UnitProfiles.Profile profile)
+    {
+        return new BaseUnit(catalog, firstUnits.get(profile.name), profile.unitNames.length, 0,
+                profile.baseNumber);
+    }
+
+    @Override
+    protected BaseUnit createGeneratedUnit(UnitProfiles.Profile profile)
+    {
+        return generatedUnits.get(profile.name);
+    }
+
+    @Test
+    public void convertOutsideOfTheProfileReturnsZero() throws Exception
+    //Converting into a unit index just outside the profile returns 0 instead of a neighbour's unit
+    {
+        for (UnitProfiles.Profile profile : UnitProfiles.load())
+        {
+            BaseUnit unit = createUnit(profile);
+            unit.setValue(1, 0);
+
+            assertEquals(profile.name, 0, unit.convert(profile.unitNames.length), 0);
+            assertEquals(profile.name, 0, unit.convert(-1), 0);
+        }
+    }
+
+    @Test
+    public void setValueOutsideOfTheProfileThrows() throws Exception
+    //Setting a value in a unit index just outside the profile is rejected, as it has no multiplier
+    {
+        for (UnitProfiles.Profile profile : UnitProfiles.load())
+        {
+            BaseUnit unit = createUnit(profile);
+
+            for (int unitIndex : new int[] {profile.unitNames.length, -1})
+            {
+                try
+                {
+                    unit.setValue(1, unitIndex);
+                    fail(profile.name + " accepted unit index " + unitIndex);
+                }
+                catch (IndexOutOfBoundsException e)
+                {
+                    //This is the expected outcome
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.rcarvalho.unitconverter;
+
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ Measures the heap used by cached profiles with JOL, comparing the shared UnitCatalog against the
+ previous layout, where every BaseUnit held its own ArrayList of names and of boxed multipliers.
+ */
+public class UnitCatalogFootprintTest {
+
+    /*
+    Enough copies of the profiles in strings.xml to end up with thousands of units. Each copy gets
+    its own unit names, as the profiles in the app don't share any, so interning them saves nothing
+    and the difference measured comes from the layout alone
+    */
+    private static final int PROFILE_COPIES = 500;
+
+    @Test
+    public void sharedCatalogUsesLessHeapThanPerProfileLists() throws Exception
+    {
+        List<UnitProfiles.Profile> profiles = UnitProfiles.load();
+
+        List<Object> perProfileLists = new ArrayList<>();
+        UnitCatalog catalog = new UnitCatalog();
+        List<BaseUnit> catalogUnits = new ArrayList<>();
+        int units = 0;
+
+        for (int copy = 0; copy < PROFILE_COPIES; copy++)
+        {
+            for (UnitProfiles.Profile profile : profiles)
+            {
+                String[] unitNames = new String[profile.unitNames.length];
+                for (int i = 0; i < unitNames.length; i++)
+                {
+                    unitNames[i] = profile.unitNames[i] + " " + copy;
+                }
+
+                //The previous BaseUnit layout
+                ArrayList<String> names = new ArrayList<>();
+                ArrayList<Double> values = new ArrayList<>();
+                for (int i = 0; i < unitNames.length; i++)
+                {
+                    names.add(unitNames[i]);
+                    values.add(profile.unitValues[i]);
+                }
+                perProfileLists.add(names);
+                perProfileLists.add(values);
+
+                catalogUnits.add(new BaseUnit(catalog, catalog.addUnits(unitNames,
+                        profile.unitValues), unitNames.length, 0, profile.baseNumber));
+                units += unitNames.length;
+            }
+        }
+
+        long before = GraphLayout.parseInstance(perProfileLists.toArray()).totalSize();
+        long after = GraphLayout.parseInstance(catalogUnits.toArray()).totalSize();
+
+        System.out.println(String.format("%d units: per-profile lists %d bytes, shared catalog "
+                + "%d bytes (%.1f%%)", units, before, after, 100.0 * after / before));
+        assertTrue("The shared catalog should use less heap than per-profile lists",
+                after < before);
+    }
+}
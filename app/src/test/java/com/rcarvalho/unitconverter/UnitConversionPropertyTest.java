@@ -0,0 +1,349 @@
+package com.rcarvalho.unitconverter;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ Randomized correctness checks for every profile in strings.xml. Each property runs against the
+ BaseUnit returned by createUnit(), so a faster implementation can be validated against the same
+ properties, and generated converter classes are compared with the data-driven BaseUnit directly.
+ */
+public class UnitConversionPropertyTest {
+
+    //A fixed seed keeps failures reproducible, change it locally to explore other cases
+    private static final long SEED = 20150713L;
+    private static final int ROUND_TRIP_CASES = 1000000;
+    private static final int CASES_PER_UNIT_TRIPLE = 2000;
+    private static final int CASES_PER_UNIT_PAIR = 20000;
+    private static final int GENERATED_UNIT_CASES = 1000000;
+
+    //Amounts that are compared between implementations on top of the random ones
+    private static final double[] SPECIAL_AMOUNTS = {0.0, -0.0, Double.MIN_VALUE,
+            -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+
+    /*
+    Maximum error, in units in the last place of the result (or of the base number, if that is
+    larger), that a round trip or a conversion through an intermediate unit may introduce
+    */
+    private static final int MAX_ULPS = 8;
+
+    /*
+    The multipliers in strings.xml are rounded to about 10 significant digits, so conversions are
+    compared with the reference constants below to this relative precision
+    */
+    private static final double REFERENCE_PRECISION = 1e-8;
+
+    /*
+    Reference definitions of every unit shipped in strings.xml, keyed by '<profile>/<unit>'. Each
+    entry holds the scale and offset that convert an amount of that unit into the SI unit of the
+    profile (kilograms, meters, liters, meters per second and kelvin)
+    */
+    private static final Map<String, double[]> REFERENCES = new HashMap<>();
+
+    static
+    {
+        REFERENCES.put("Weight/Carats", new double[] {0.0002, 0});
+        REFERENCES.put("Weight/Grains", new double[] {0.00006479891, 0});
+        REFERENCES.put("Weight/Grams", new double[] {0.001, 0});
+        REFERENCES.put("Weight/Kilograms", new double[] {1, 0});
+        REFERENCES.put("Weight/Ounces", new double[] {0.028349523125, 0});
+        REFERENCES.put("Weight/Pounds", new double[] {0.45359237, 0});
+        REFERENCES.put("Weight/Stones", new double[] {6.35029318, 0});
+        REFERENCES.put("Distance/Centimeter", new double[] {0.01, 0});
+        REFERENCES.put("Distance/Inch", new double[] {0.0254, 0});
+        REFERENCES.put("Distance/Feet", new double[] {0.3048, 0});
+        REFERENCES.put("Distance/Yard", new double[] {0.9144, 0});
+        REFERENCES.put("Distance/Kilometer", new double[] {1000, 0});
+        REFERENCES.put("Distance/Mile", new double[] {1609.344, 0});
+        REFERENCES.put("Volume/Liter", new double[] {1, 0});
+        REFERENCES.put("Volume/Milliliter", new double[] {0.001, 0});
+        REFERENCES.put("Volume/US Gal", new double[] {3.785411784, 0});
+        REFERENCES.put("Volume/US fl oz", new double[] {0.0295735295625, 0});
+        REFERENCES.put("Speed/km/h", new double[] {1 / 3.6, 0});
+        REFERENCES.put("Speed/mile/h", new double[] {0.44704, 0});
+        REFERENCES.put("Speed/knot", new double[] {1852.0 / 3600, 0});
+        REFERENCES.put("Speed/ft/s", new double[] {0.3048, 0});
+        REFERENCES.put("Speed/m/s", new double[] {1, 0});
+        REFERENCES.put("Temperature/Celcius", new double[] {1, 273.15});
+        REFERENCES.put("Temperature/Fahrenheit", new double[] {5.0 / 9, 273.15 - 32 * 5.0 / 9});
+    }
+
+    private static List<UnitProfiles.Profile> profiles;
+
+    @BeforeClass
+    public static void loadProfiles() throws Exception
+    {
+        profiles = UnitProfiles.load();
+    }
+
+    protected BaseUnit createUnit(UnitProfiles.Profile profile)
+    /*
+    This method returns the implementation under test for a given profile. Override it to run the
+    same properties against a different implementation of BaseUnit
+    */
+    {
+        return profile.createBaseUnit();
+    }
+
+    protected BaseUnit createGeneratedUnit(UnitProfiles.Profile profile) throws Exception
+    /*
+    This method returns the generated class of a given profile, or null if the build didn't
+    produce it. Override it together with createUnit() to load units the same way
+    */
+    {
+        return profile.createGeneratedUnit();
+    }
+
+    @Test
+    public void everyProfileIsComplete()
+    //Every profile needs matching names and multipliers, at least 2 units and a multiplier of 1
+    {
+        for (UnitProfiles.Profile profile : profiles)
+        {
+            assertEquals(profile.name + " names and multipliers", profile.unitNames.length,
+                    profile.unitValues.length);
+            assertTrue(profile.name + " has less than 2 units", profile.unitNames.length > 1);
+
+            boolean hasReferenceUnit = false;
+            for (double unitValue : profile.unitValues)
+            {
+                assertTrue(profile.name + " has a non-positive multiplier", unitValue > 0);
+                hasReferenceUnit |= unitValue == 1;
+            }
+            assertTrue(profile.name + " has no unit with a multiplier of 1", hasReferenceUnit);
+        }
+    }
+
+    @Test
+    public void roundTripReturnsTheOriginalAmount()
+    //Setting an amount in a unit and converting it back into that unit should not change it
+    {
+        Random random = new Random(SEED);
+
+        for (UnitProfiles.Profile profile : profiles)
+        {
+            BaseUnit unit = createUnit(profile);
+
+            for (int i = 0; i < ROUND_TRIP_CASES; i++)
+            {
+                int unitIndex = random.nextInt(profile.unitNames.length);
+                double amount = randomAmount(random);
+
+                unit.setValue(amount, unitIndex);
+                double result = unit.convert(unitIndex);
+                if (!withinUlps(amount, result, profile.baseNumber))
+                {
+                    fail(profile.name + " " + amount + " " + profile.unitNames[unitIndex]
+                            + " round trip returned " + result);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void conversionIsTransitiveAcrossEveryUnitTriple()
+    //Converting from a to c directly should equal converting from a to b and then from b to c
+    {
+        Random random = new Random(SEED);
+
+        for (UnitProfiles.Profile profile : profiles)
+        {
+            BaseUnit unit = createUnit(profile);
+            int units = profile.unitNames.length;
+
+            for (int a = 0; a < units; a++)
+            {
+                for (int b = 0; b < units; b++)
+                {
+                    for (int c = 0; c < units; c++)
+                    {
+                        for (int i = 0; i < CASES_PER_UNIT_TRIPLE; i++)
+                        {
+                            double amount = randomAmount(random);
+
+                            unit.setValue(amount, a);
+                            double direct = unit.convert(c);
+                            double intermediate = unit.convert(b);
+                            unit.setValue(intermediate, b);
+                            double result = unit.convert(c);
+
+                            if (!withinUlps(direct, result, profile.baseNumber))
+                            {
+                                fail(profile.name + " " + amount + " " + profile.unitNames[a]
+                                        + " via " + profile.unitNames[b] + " into "
+                                        + profile.unitNames[c] + " returned " + result
+                                        + " instead of " + direct);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void conversionAgreesWithReferenceConstants()
+    //Every conversion between units with a known definition should match that definition
+    {
+        Random random = new Random(SEED);
+
+        for (UnitProfiles.Profile profile : profiles)
+        {
+            BaseUnit unit = createUnit(profile);
+            int units = profile.unitNames.length;
+
+            for (int from = 0; from < units; from++)
+            {
+                double[] fromReference = REFERENCES.get(profile.name + "/"
+                        + profile.unitNames[from]);
+
+                for (int to = 0; to < units; to++)
+                {
+                    double[] toReference = REFERENCES.get(profile.name + "/"
+                            + profile.unitNames[to]);
+
+                    //Profiles added without a reference definition can only be checked for consistency
+                    if (fromReference == null || toReference == null)
+                    {
+                        continue;
+                    }
+
+                    for (int i = 0; i < CASES_PER_UNIT_PAIR; i++)
+                    {
+                        double amount = randomAmount(random);
+                        double expected = (amount * fromReference[0] + fromReference[1]
+                                - toReference[1]) / toReference[0];
+
+                        unit.setValue(amount, from);
+                        double actual = unit.convert(to);
+
+                        /*
+                        Scale the tolerance with the offset too, as an absolute error in kelvin
+                        doesn't shrink when the amount gets close to 0
+                        */
+                        double tolerance = REFERENCE_PRECISION * (Math.abs(expected)
+                                + Math.abs(toReference[1] / toReference[0]));
+                        if (!(Math.abs(expected - actual) <= tolerance))
+                        {
+                            fail(profile.name + " " + amount + " " + profile.unitNames[from]
+                                    + " into " + profile.unitNames[to] + " returned " + actual
+                                    + " instead of " + expected);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void generatedUnitsMatchBaseUnit() throws Exception
+    /*
+    The classes emitted by the generateUnitConverters build task should give exactly the same
+    results as the data-driven BaseUnit. Skipped when the build didn't generate them
+    */
+    {
+        Random random = new Random(SEED);
+
+        for (UnitProfiles.Profile profile : profiles)
+        {
+            BaseUnit generated = createGeneratedUnit(profile);
+            Assume.assumeNotNull(generated);
+
+            BaseUnit unit = createUnit(profile);
+            int units = profile.unitNames.length;
+
+            //randomAmount() never returns signed zeros or values that underflow, so check those too
+            for (double amount : SPECIAL_AMOUNTS)
+            {
+                for (int from = 0; from < units; from++)
+                {
+                    for (int to = 0; to < units; to++)
+                    {
+                        assertSameResult(profile, unit, generated, amount, from, to);
+                    }
+                }
+            }
+
+            for (int i = 0; i < GENERATED_UNIT_CASES; i++)
+            {
+                assertSameResult(profile, unit, generated, randomAmount(random),
+                        random.nextInt(units), random.nextInt(units));
+            }
+        }
+    }
+
+    @Test
+    public void generatedUnitsRejectChangedMultipliers() throws Exception
+    /*
+    A generated class only holds the arithmetic for the multipliers it was generated from, so it
+    should refuse resources with different ones without adding them to the catalog
+    */
+    {
+        for (UnitProfiles.Profile profile : profiles)
+        {
+            Assume.assumeNotNull(profile.createGeneratedUnit());
+
+            double[] changedValues = profile.unitValues.clone();
+            changedValues[0] *= 2;
+            UnitProfiles.Profile changed = new UnitProfiles.Profile(profile.name,
+                    profile.unitNames, changedValues, profile.baseNumber);
+            UnitCatalog catalog = new UnitCatalog();
+
+            try
+            {
+                changed.createGeneratedUnit(catalog);
+                fail(profile.name + " accepted changed multipliers");
+            }
+            catch (InvocationTargetException e)
+            {
+                assertTrue(profile.name, e.getCause() instanceof IllegalArgumentException);
+            }
+            assertEquals(profile.name, 0, catalog.size());
+        }
+    }
+
+    private static void assertSameResult(UnitProfiles.Profile profile, BaseUnit expectedUnit,
+                                         BaseUnit actualUnit, double amount, int from, int to)
+    //Converts an amount with both units and fails unless the results are the exact same double
+    {
+        expectedUnit.setValue(amount, from);
+        actualUnit.setValue(amount, from);
+        double expected = expectedUnit.convert(to);
+        double actual = actualUnit.convert(to);
+        if (Double.compare(expected, actual) != 0)
+        {
+            fail(profile.name + " " + amount + " " + profile.unitNames[from] + " into "
+                    + profile.unitNames[to] + " returned " + actual + " instead of " + expected);
+        }
+    }
+
+    private static double randomAmount(Random random)
+    //Returns a random positive or negative amount with a magnitude between 1e-9 and 1e9
+    {
+        double amount = Math.pow(10, random.nextInt(19) - 9) * random.nextDouble();
+        return random.nextBoolean() ? amount : -amount;
+    }
+
+    private static boolean withinUlps(double expected, double actual, double baseNumber)
+    /*
+    Compare two amounts, allowing MAX_ULPS of rounding error. Profiles with a base number add it
+    before multiplying, so the error there is relative to the base number rather than the amount.
+    Failure messages are only built by the callers once this fails, as the properties run millions
+    of times
+    */
+    {
+        double tolerance = MAX_ULPS * Math.ulp(Math.abs(expected) + Math.abs(baseNumber));
+        return Math.abs(expected - actual) <= tolerance;
+    }
+}
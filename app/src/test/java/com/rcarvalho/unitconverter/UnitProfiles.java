@@ -0,0 +1,135 @@
+package com.rcarvalho.unitconverter;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+/**
+ Reads the unit conversion profiles straight from strings.xml, following the same naming
+ conventions as UnitConverterFragment, so JVM tests can build BaseUnit objects without Android
+ resources.
+ */
+class UnitProfiles {
+
+    static class Profile
+    //Holds the unit names, multipliers and base number of a single profile
+    {
+        final String name;
+        final String[] unitNames;
+        final double[] unitValues;
+        final double baseNumber;
+
+        Profile(String name, String[] unitNames, double[] unitValues, double baseNumber)
+        {
+            this.name = name;
+            this.unitNames = unitNames;
+            this.unitValues = unitValues;
+            this.baseNumber = baseNumber;
+        }
+
+        BaseUnit createBaseUnit()
+        //Creates the data-driven BaseUnit the app would load for this profile
+        {
+            return new BaseUnit(unitNames, unitValues, 0, baseNumber);
+        }
+
+        BaseUnit createGeneratedUnit() throws Exception
+        /*
+        Creates the class generated for this profile by the generateUnitConverters build task,
+        with a catalog of its own, or returns null if the build didn't produce it
+        */
+        {
+            return createGeneratedUnit(new UnitCatalog(unitNames.length));
+        }
+
+        BaseUnit createGeneratedUnit(UnitCatalog catalog) throws Exception
+        //Same as above, adding the units to a given catalog the way UnitConverterFragment does
+        {
+            Class<?> generatedClass;
+            try
+            {
+                generatedClass = Class.forName(BaseUnit.class.getPackage().getName()
+                        + ".Generated" + name + "Unit");
+            }
+            catch (ClassNotFoundException e)
+            {
+                return null;
+            }
+            return (BaseUnit) generatedClass.getConstructor(UnitCatalog.class, String[].class,
+                    double[].class, double.class).newInstance(catalog, unitNames, unitValues,
+                    baseNumber);
+        }
+    }
+
+    static List<Profile> load() throws Exception
+    //This method returns every profile listed under the 'profiles' array in strings.xml
+    {
+        Map<String, String[]> arrays = loadStringArrays(findStringsXml());
+        List<Profile> profiles = new ArrayList<>();
+
+        for (String profile : arrays.get("profiles"))
+        {
+            String[] unitNames = arrays.get("units" + profile);
+            String[] unitValueStrings = arrays.get("units" + profile + "Values");
+            String[] baseNumber = arrays.get("units" + profile + "Base");
+
+            if (unitNames == null || unitValueStrings == null)
+            {
+                throw new IllegalStateException("Profile " + profile + " has no units and/or "
+                        + "values in strings.xml");
+            }
+
+            double[] unitValues = new double[unitValueStrings.length];
+            for (int i = 0; i < unitValueStrings.length; i++)
+            {
+                unitValues[i] = Double.parseDouble(unitValueStrings[i]);
+            }
+
+            profiles.add(new Profile(profile, unitNames, unitValues,
+                    baseNumber == null ? 0 : Double.parseDouble(baseNumber[0])));
+        }
+        return profiles;
+    }
+
+    private static File findStringsXml()
+    //Unit tests may run from either the module or the project directory
+    {
+        File stringsXml = new File("src/main/res/values/strings.xml");
+        if (!stringsXml.exists())
+        {
+            stringsXml = new File("app/src/main/res/values/strings.xml");
+        }
+        return stringsXml;
+    }
+
+    private static Map<String, String[]> loadStringArrays(File stringsXml) throws Exception
+    //This method returns all string arrays found in the given file by their name
+    {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(stringsXml);
+        Map<String, String[]> arrays = new HashMap<>();
+
+        NodeList arrayNodes = document.getElementsByTagName("string-array");
+        for (int i = 0; i < arrayNodes.getLength(); i++)
+        {
+            Element array = (Element) arrayNodes.item(i);
+            NodeList items = array.getElementsByTagName("item");
+            String[] entries = new String[items.getLength()];
+            for (int j = 0; j < items.getLength(); j++)
+            {
+                entries[j] = items.item(j).getTextContent().trim().replace("\\'", "'")
+                        .replace("\\\"", "\"");
+            }
+            arrays.put(array.getAttribute("name"), entries);
+        }
+        return arrays;
+    }
+}